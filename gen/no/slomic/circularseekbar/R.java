@@ -9,6 +9,26 @@ package no.slomic.circularseekbar;
 
 public final class R {
     public static final class attr {
+        /** <p>Must be a color value, in the form of "<code>#<i>rgb</i></code>", "<code>#<i>argb</i></code>",
+"<code>#<i>rrggbb</i></code>", or "<code>#<i>aarrggbb</i></code>".
+         */
+        public static final int buttonPushedColor=0x7f010003;
+        /** <p>Must be a color value, in the form of "<code>#<i>rgb</i></code>", "<code>#<i>argb</i></code>",
+"<code>#<i>rrggbb</i></code>", or "<code>#<i>aarrggbb</i></code>".
+         */
+        public static final int emptyCircleColor=0x7f010000;
+        /** <p>Must be a color value, in the form of "<code>#<i>rgb</i></code>", "<code>#<i>argb</i></code>",
+"<code>#<i>rrggbb</i></code>", or "<code>#<i>aarrggbb</i></code>".
+         */
+        public static final int selectedCircleColor=0x7f010001;
+        /** <p>Must be a color value, in the form of "<code>#<i>rgb</i></code>", "<code>#<i>argb</i></code>",
+"<code>#<i>rrggbb</i></code>", or "<code>#<i>aarrggbb</i></code>".
+         */
+        public static final int textColor=0x7f010004;
+        /** <p>Must be a color value, in the form of "<code>#<i>rgb</i></code>", "<code>#<i>argb</i></code>",
+"<code>#<i>rrggbb</i></code>", or "<code>#<i>aarrggbb</i></code>".
+         */
+        public static final int thumbColor=0x7f010002;
     }
     public static final class drawable {
         public static final int ic_action_search=0x7f020000;
@@ -26,4 +46,48 @@ public final class R {
     public static final class style {
         public static final int ShushTheme=0x7f050000;
     }
+    public static final class styleable {
+        /** Attributes that can be used with a CircularSeekBar.
+           <p>Includes the following attributes:</p>
+           <table>
+           <colgroup align="left" />
+           <colgroup align="left" />
+           <tr><th>Attribute</th><th>Description</th></tr>
+           <tr><td><code>{@link #CircularSeekBar_buttonPushedColor no.slomic.circularseekbar:buttonPushedColor}</code></td><td></td></tr>
+           <tr><td><code>{@link #CircularSeekBar_emptyCircleColor no.slomic.circularseekbar:emptyCircleColor}</code></td><td></td></tr>
+           <tr><td><code>{@link #CircularSeekBar_selectedCircleColor no.slomic.circularseekbar:selectedCircleColor}</code></td><td></td></tr>
+           <tr><td><code>{@link #CircularSeekBar_textColor no.slomic.circularseekbar:textColor}</code></td><td></td></tr>
+           <tr><td><code>{@link #CircularSeekBar_thumbColor no.slomic.circularseekbar:thumbColor}</code></td><td></td></tr>
+           </table>
+           @see #CircularSeekBar_buttonPushedColor
+           @see #CircularSeekBar_emptyCircleColor
+           @see #CircularSeekBar_selectedCircleColor
+           @see #CircularSeekBar_textColor
+           @see #CircularSeekBar_thumbColor
+         */
+        public static final int[] CircularSeekBar = {
+            0x7f010000, 0x7f010001, 0x7f010002, 0x7f010003,
+            0x7f010004
+        };
+        /**
+          @attr name no.slomic.circularseekbar:buttonPushedColor
+        */
+        public static final int CircularSeekBar_buttonPushedColor = 3;
+        /**
+          @attr name no.slomic.circularseekbar:emptyCircleColor
+        */
+        public static final int CircularSeekBar_emptyCircleColor = 0;
+        /**
+          @attr name no.slomic.circularseekbar:selectedCircleColor
+        */
+        public static final int CircularSeekBar_selectedCircleColor = 1;
+        /**
+          @attr name no.slomic.circularseekbar:textColor
+        */
+        public static final int CircularSeekBar_textColor = 4;
+        /**
+          @attr name no.slomic.circularseekbar:thumbColor
+        */
+        public static final int CircularSeekBar_thumbColor = 2;
+    };
 }
@@ -0,0 +1,301 @@
+/**
+ * Author: Ismar Slomic (ismar@slomic.no)
+ *
+ *
+ */
+
+package no.slomic.circularseekbar;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+/**
+ * Randomized stress and invariant check of the step and round trip logic in
+ * StepModel, for each kind of StepMapping. This is not an Android
+ * instrumentation test: it runs on a plain JVM, since neither class depends
+ * on Android, and is built by jvmtests/build.xml from those two sources only:
+ *
+ * <pre>
+ * ant -f jvmtests/build.xml [-Doperations=3000000] [-Dseed=42]
+ * </pre>
+ *
+ * Checks that the selected step stays in the index range of the values, that
+ * the round trips match the selected step, that a continuous forward drag
+ * never reduces the step or round trips and reaches the last step, that a
+ * velocity gain scales slow and fast drags, and that the random operations,
+ * with and without velocity gain, do not allocate. Prints the throughput for each
+ * mapping and throws an AssertionError on the first broken invariant.
+ */
+final class StepModelStress {
+    private static final int DEFAULT_OPERATIONS = 3000000;
+
+    /** Allowed allocation for a whole run, measuring itself may allocate a little **/
+    private static final long ALLOCATION_TOLERANCE = 1024;
+
+    public static void main(String[] args) {
+        int operations = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_OPERATIONS;
+        long seed = (args.length > 1) ? Long.parseLong(args[1]) : System.nanoTime();
+        System.out.println("operations: " + operations + ", seed: " + seed);
+
+        double[] values = generateValueArray();
+        StepMapping[] mappings = {
+                new StepMapping.Linear(10),
+                new StepMapping.Logarithmic(240f, 0.01),
+                new StepMapping.Piecewise(new double[] { 10 }, new float[] { 3f, 0.5f })
+        };
+
+        checkEdgeCases(values);
+
+        checkVelocityGain(values);
+
+        StepMapping.VelocityGain gain = new StepMapping.LinearVelocityGain(0.5f, 4f, 360f);
+        for (StepMapping mapping : mappings) {
+            String name = mapping.getClass().getSimpleName();
+            checkForwardAndBackwardDrag(name, mapping, values);
+
+            runMeasured(name, newStepModel(mapping, values), mapping, seed, operations);
+
+            StepModel steps = newStepModel(mapping, values);
+            steps.setVelocityGain(gain);
+            runMeasured(name + " with velocity gain", steps, mapping, seed, operations);
+        }
+
+        System.out.println("all invariants hold");
+    }
+
+    /** Runs random operations, checking allocations and printing the throughput **/
+    private static void runMeasured(String name, StepModel steps, StepMapping mapping,
+            long seed, int operations) {
+        Random random = new Random(seed);
+
+        // warm up before measuring allocations and time
+        runRandomOperations(steps, mapping, random, operations / 10);
+
+        long allocatedBefore = allocatedBytes();
+        long startTime = System.nanoTime();
+        runRandomOperations(steps, mapping, random, operations);
+        long elapsed = System.nanoTime() - startTime;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        if (allocatedBefore >= 0 && allocated > ALLOCATION_TOLERANCE)
+            throw new AssertionError(name + ": allocated " + allocated + " bytes");
+
+        System.out.println(name + ": " + (long) (operations * 1e9 / elapsed)
+                + " operations/s, allocated "
+                + (allocatedBefore >= 0 ? allocated + " bytes" : "not measured"));
+    }
+
+    /**
+     * Synthetic touch angles and button presses, checking the invariants after
+     * each operation
+     */
+    private static void runRandomOperations(StepModel steps, StepMapping mapping, Random random,
+            int operations) {
+        int sweepAngle = 0;
+        long time = 0;
+
+        for (int i = 0; i < operations; i++) {
+            int operation = random.nextInt(10);
+            time += 1 + random.nextInt(50);
+
+            if (operation < 6) { // drag in either direction
+                sweepAngle = (sweepAngle + random.nextInt(41) - 20 + 360) % 360;
+                steps.dragTo(sweepAngle, time);
+            } else if (operation == 6) { // touch anywhere on the circle
+                sweepAngle = random.nextInt(360);
+                steps.endDrag();
+                steps.startDrag(sweepAngle, time);
+            } else if (operation == 7) {
+                steps.increaseStep(random.nextInt(60) - 10);
+            } else if (operation == 8) {
+                steps.decreaseStep(random.nextInt(60) - 10);
+            } else { // steps set from the code, also outside of the range
+                steps.setSelectedStep(random.nextInt(3 * steps.getStepCount())
+                        - steps.getStepCount());
+            }
+
+            checkState(steps, mapping);
+        }
+    }
+
+    /** Drags forward until the last step and back again, in steps of 1 - 15 degrees **/
+    private static void checkForwardAndBackwardDrag(String name, StepMapping mapping,
+            double[] values) {
+        StepModel steps = newStepModel(mapping, values);
+        int lastStep = steps.getStepCount() - 1;
+        int maxDegrees = (int) mapping.getAngleForStep(lastStep) + 360;
+        Random random = new Random(1);
+
+        int degrees = 0;
+        while (steps.getSelectedStep() < lastStep) {
+            int previousStep = steps.getSelectedStep();
+            int previousRoundTrips = steps.getRoundTrips();
+
+            degrees += 1 + random.nextInt(15);
+            steps.setSelectedSweepAngle(degrees % 360);
+            checkState(steps, mapping);
+
+            if (steps.getSelectedStep() < previousStep
+                    || steps.getRoundTrips() < previousRoundTrips)
+                throw new AssertionError(name + ": forward drag went back from step "
+                        + previousStep + " to " + steps.getSelectedStep());
+            if (degrees > maxDegrees)
+                throw new AssertionError(name + ": forward drag did not reach the last step");
+        }
+
+        while (degrees > 0) {
+            int previousStep = steps.getSelectedStep();
+
+            degrees = Math.max(0, degrees - 1 - random.nextInt(15));
+            steps.setSelectedSweepAngle(degrees % 360);
+            checkState(steps, mapping);
+
+            if (steps.getSelectedStep() > previousStep)
+                throw new AssertionError(name + ": backward drag went forward from step "
+                        + previousStep + " to " + steps.getSelectedStep());
+        }
+
+        if (steps.getSelectedStep() != 0 || steps.getRoundTrips() != 0)
+            throw new AssertionError(name + ": backward drag did not return to the first step");
+    }
+
+    /**
+     * Drags a quarter of the circle slowly and fast with a velocity gain, and
+     * checks that the slow drag moves the thumb half the angle and the fast
+     * drag four times the angle
+     */
+    private static void checkVelocityGain(double[] values) {
+        StepMapping mapping = new StepMapping.Linear(1);
+        StepModel steps = newStepModel(mapping, values);
+        steps.setVelocityGain(new StepMapping.LinearVelocityGain(0.5f, 4f, 360f));
+
+        steps.startDrag(0, 0);
+        if (steps.getSelectedStep() != 0)
+            throw new AssertionError("touch with velocity gain moved the thumb");
+        for (int degrees = 1; degrees <= 90; degrees++)
+            steps.dragTo(degrees, degrees * 1000L); // one degree per second
+        steps.endDrag();
+        if (Math.abs(steps.getSelectedStep() - 45) > 1)
+            throw new AssertionError("slow drag selected step " + steps.getSelectedStep());
+
+        steps.setSelectedStep(0);
+        steps.startDrag(0, 0);
+        for (int degrees = 1; degrees <= 90; degrees++)
+            steps.dragTo(degrees, degrees); // 1000 degrees per second
+        steps.endDrag();
+        expectStep(steps, 360, "fast drag");
+        checkState(steps, mapping);
+
+        // never beyond the first or last step
+        steps.startDrag(0, 0);
+        for (int degrees = -1; degrees >= -720; degrees--)
+            steps.dragTo((degrees % 360 + 360) % 360, -degrees);
+        expectStep(steps, 0, "fast backward drag");
+        for (int degrees = 1; degrees <= 360 * 20; degrees++)
+            steps.dragTo(degrees % 360, 1000 + degrees);
+        expectStep(steps, values.length - 1, "long fast drag");
+        checkState(steps, mapping);
+    }
+
+    private static void checkEdgeCases(double[] values) {
+        StepModel steps = new StepModel();
+        steps.setValues(new double[0]);
+        steps.increaseStep(5);
+        steps.decreaseStep(-5);
+        steps.setSelectedSweepAngle(100);
+        steps.setSelectedStep(3);
+        if (steps.getSelectedStep() != 0 || steps.getRoundTrips() != 0)
+            throw new AssertionError("empty values selected step " + steps.getSelectedStep());
+        if (steps.restore(0))
+            throw new AssertionError("restored a step of empty values");
+
+        steps.setValues(values);
+        int lastStep = values.length - 1;
+
+        steps.setSelectedStep(values.length); // one past the last index
+        expectStep(steps, lastStep, "setSelectedStep(length)");
+
+        steps.increaseStep(Integer.MAX_VALUE); // overflow
+        expectStep(steps, lastStep, "increaseStep(MAX_VALUE)");
+
+        steps.decreaseStep(-10); // negative decrement
+        expectStep(steps, lastStep, "decreaseStep(-10)");
+
+        steps.decreaseStep(Integer.MAX_VALUE);
+        expectStep(steps, 0, "decreaseStep(MAX_VALUE)");
+
+        // the round trips follow the step, whatever mapping the state came from
+        if (!steps.restore(100) || steps.getRoundTrips() != 100 * 10 / 360)
+            throw new AssertionError("restore(100) round trips " + steps.getRoundTrips());
+        steps.setSelectedSweepAngle(10);
+        if (Math.abs(steps.getSelectedStep() - 100) > 36)
+            throw new AssertionError("touch after restore selected " + steps.getSelectedStep());
+
+        if (steps.restore(values.length) || steps.restore(-1))
+            throw new AssertionError("restored a step outside of the values");
+    }
+
+    private static void checkState(StepModel steps, StepMapping mapping) {
+        int step = steps.getSelectedStep();
+
+        if (step < 0 || step >= Math.max(steps.getStepCount(), 1))
+            throw new AssertionError("selected step " + step + " out of range");
+        if (steps.getRoundTrips() != mapping.getRoundTripForStep(step))
+            throw new AssertionError("round trips " + steps.getRoundTrips()
+                    + " do not match step " + step);
+    }
+
+    private static void expectStep(StepModel steps, int expected, String operation) {
+        if (steps.getSelectedStep() != expected)
+            throw new AssertionError(operation + " selected step " + steps.getSelectedStep()
+                    + ", expected " + expected);
+    }
+
+    private static StepModel newStepModel(StepMapping mapping, double[] values) {
+        StepModel steps = new StepModel();
+        steps.setValues(values);
+        steps.setStepMapping(mapping, values);
+        return steps;
+    }
+
+    /**
+     * Returns the bytes allocated by this thread, or -1 if the JVM cannot
+     * measure it
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return -1;
+
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (!sunBean.isThreadAllocatedMemorySupported()
+                || !sunBean.isThreadAllocatedMemoryEnabled())
+            return -1;
+
+        return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /** Same values as in MainActivity, 0.00 - 300.0 **/
+    private static double[] generateValueArray() {
+        double[] values = new double[3901];
+        int arrayIndex = 0;
+        double arrayValue = 0;
+
+        while (arrayValue < 10) {
+            values[arrayIndex] = (Math.round(arrayValue * 100.0) / 100.0);
+            arrayValue += 0.01;
+            arrayIndex++;
+        }
+
+        values[arrayIndex] = (Math.round(arrayValue * 10.0) / 10.0);
+
+        while (arrayValue < 300) {
+            values[arrayIndex] = (Math.round(arrayValue * 10.0) / 10.0);
+            arrayValue += 0.1;
+            arrayIndex++;
+        }
+
+        return values;
+    }
+}
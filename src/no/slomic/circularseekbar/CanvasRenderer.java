@@ -0,0 +1,115 @@
+/**
+ * Author: Ismar Slomic (ismar@slomic.no)
+ *
+ *
+ */
+
+package no.slomic.circularseekbar;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+/**
+ * Default renderer, drawing the whole seek bar directly on the canvas in every
+ * frame. Nothing is logged while drawing, since it runs for every frame.
+ */
+final class CanvasRenderer implements SeekBarRenderer {
+    private final Path mPath = new Path();
+
+    public void draw(Canvas canvas, SeekBarGeometry geometry, PaintSet paints,
+            TextPaint textPaint, int sweepDegrees, boolean isIncreasePushed,
+            boolean isDecreasePushed, String label) {
+        /** A. Draws the circular seek bar **/
+        drawCircularSeekBar(canvas, geometry, paints, sweepDegrees);
+
+        /** B. Draws the text and buttons of the seek bar **/
+        drawButtonBackgrounds(canvas, geometry, paints, isIncreasePushed, isDecreasePushed);
+        drawLabel(canvas, geometry, textPaint, label);
+        drawButtons(canvas, geometry, isIncreasePushed ? paints.thumbPaint
+                : paints.emptyCirclePaint, isDecreasePushed ? paints.thumbPaint
+                : paints.emptyCirclePaint);
+    }
+
+    public void release() {
+        // nothing is cached
+    }
+
+    /**
+     * Draw a circle and an arc of the selected step, from start thru end.
+     */
+    private void drawCircularSeekBar(Canvas canvas, SeekBarGeometry geometry, PaintSet paints,
+            int sweepDegrees) {
+        int startAngle = geometry.startAngle;
+        int thumbThickness = geometry.thumbThickness;
+
+        // the colored "filled" part of the circle
+        drawArc(canvas, geometry, startAngle, sweepDegrees, paints.selectedCirclePaint);
+
+        // the white selected part of the circle
+        startAngle += sweepDegrees;
+        drawArc(canvas, geometry, startAngle, thumbThickness, paints.thumbPaint);
+
+        // the grey empty part of the circle
+        startAngle += thumbThickness;
+        drawArc(canvas, geometry, startAngle, 360 - sweepDegrees - thumbThickness,
+                paints.emptyCirclePaint);
+    }
+
+    /** Up/down button backgrounds when they are pushed **/
+    private void drawButtonBackgrounds(Canvas canvas, SeekBarGeometry geometry, PaintSet paints,
+            boolean isIncreasePushed, boolean isDecreasePushed) {
+        if (isIncreasePushed) {
+            canvas.drawArc(geometry.buttonCircle, 270, 180, true, paints.buttonPushedPaint);
+        }
+        if (isDecreasePushed) {
+            canvas.drawArc(geometry.buttonCircle, 90, 180, true, paints.buttonPushedPaint);
+        }
+    }
+
+    /**
+     * Write label in the middle of the circle
+     */
+    private void drawLabel(Canvas canvas, SeekBarGeometry geometry, TextPaint textPaint,
+            String label) {
+        StaticLayout layout = new StaticLayout(label, textPaint, 280,
+                Layout.Alignment.ALIGN_NORMAL, 1.f, 0, true);
+
+        canvas.save();
+        canvas.translate(geometry.centerX, geometry.centerY - (geometry.diameter * 0.30f));
+        layout.draw(canvas);
+        canvas.restore();
+    }
+
+    /** Up/down buttons **/
+    private void drawButtons(Canvas canvas, SeekBarGeometry geometry, Paint upPaint,
+            Paint downPaint) {
+        int centerX = geometry.centerX;
+        int centerY = geometry.centerY;
+        int diameter = geometry.diameter;
+
+        canvas.drawRect(centerX - diameter * 0.32f, centerY - diameter * 0.01f, centerX
+                - diameter * 0.22f, centerY + diameter * 0.01f, downPaint);
+
+        canvas.drawRect(centerX + diameter * 0.22f, centerY - diameter * 0.01f, centerX
+                + diameter * 0.32f, centerY + diameter * 0.01f, upPaint);
+        canvas.drawRect(centerX + diameter * 0.26f, centerY - diameter * 0.05f, centerX
+                + diameter * 0.28f, centerY + diameter * 0.05f, upPaint);
+    }
+
+    /** Generic method for drawing arcs **/
+    private void drawArc(Canvas canvas, SeekBarGeometry geometry, int startAngle,
+            int sweepDegrees, Paint paint) {
+        if (sweepDegrees <= 0)
+            return;
+
+        mPath.reset();
+        mPath.arcTo(geometry.outerCircle, startAngle, sweepDegrees);
+        mPath.arcTo(geometry.innerCircle, startAngle + sweepDegrees, -sweepDegrees);
+        mPath.close();
+        canvas.drawPath(mPath, paint);
+    }
+}
@@ -16,13 +16,11 @@
 package no.slomic.circularseekbar;
 
 import android.content.Context;
+import android.content.res.TypedArray;
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Path;
-import android.graphics.RectF;
-import android.text.Layout;
-import android.text.StaticLayout;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.text.TextPaint;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
@@ -30,47 +28,34 @@ import android.util.Log;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.WindowManager;
-import android.widget.NumberPicker;
 
 /**
  * @author ismar.slomic
  */
 final class CircularSeekBar extends View {
     /** Dimensions and graphical shapes of the circle and buttons **/
-    private int mWidth;
-    private int mHeight;
-    private int mCenterX;
-    private int mCenterY;
-    private int mDiameter;
-    private RectF mOuterCircle;
-    private RectF mInnerCircle;
-    private RectF mButtonCircle;
-    private final Path mPath = new Path();
-    private static final int INSETS = 6;
+    private SeekBarGeometry mGeometry;
     private int mStepThumbTickness = 2;
 
-    /** Circle colors **/
-    private Paint mEmptyCircleColor = new Paint();
-    private Paint mThumbColor = new Paint();
-    private Paint mSelectedCircleColor = new Paint();
+    /** Draws the circle, text and buttons **/
+    private SeekBarRenderer mRenderer = new CanvasRenderer();
+
+    /** Colors, shared with other seek bars of the same theme **/
+    private PaintSet mPaints;
 
     /** Text syle for the text in the midle of the circle **/
-    private TextPaint mTextStyle = new TextPaint();
+    private final TextPaint mTextStyle = new TextPaint();
 
     /** Buttons **/
     private boolean mIsIncreasePushed;
     private boolean mIsDecreasePushed;
-    private Paint mButtonPushedColor = new Paint();
     private int mButtonChangeInterval = 5;
 
     /** Angles **/
     private int mStartAngle = 270; // 360 in path.arcTo
-    private int mAngleIncrement = 10;
 
     /** Steps **/
-    private int mSelectedStep = 0;
-    private int mTotalSteps = 360 / mAngleIncrement; // 360 degrees
-    private int mRoundTrips = 0; // count of round trips in the circle
+    private final StepModel mSteps = new StepModel();
 
     /** Array of values that the slider iterates through **/
     private double[] mValueArray = new double[0];
@@ -81,28 +66,30 @@ final class CircularSeekBar extends View {
     /** Formatter **/
     private Formatter mFormatter;
 
+    /** State restored before a matching valueArray was set **/
+    private SavedState mPendingState;
+
     public CircularSeekBar(Context context, AttributeSet attrs) {
         super(context, attrs);
 
-        /** Initialize colors of the circles **/
-        mEmptyCircleColor.setColor(Color.rgb(115, 115, 115)); // grey color
-        mEmptyCircleColor.setAntiAlias(true);
-        mSelectedCircleColor.setColor(Color.rgb(255, 0, 165)); // pink color
-        mSelectedCircleColor.setAntiAlias(true);
-        mThumbColor.setColor(Color.WHITE);
-        mThumbColor.setAntiAlias(true);
+        /** Initialize colors of the circles, buttons and text **/
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.CircularSeekBar, 0, 0);
+        mPaints = PaintSet.obtain(
+                a.getColor(R.styleable.CircularSeekBar_emptyCircleColor,
+                        PaintSet.DEFAULT_EMPTY_CIRCLE_COLOR),
+                a.getColor(R.styleable.CircularSeekBar_selectedCircleColor,
+                        PaintSet.DEFAULT_SELECTED_CIRCLE_COLOR),
+                a.getColor(R.styleable.CircularSeekBar_thumbColor, PaintSet.DEFAULT_THUMB_COLOR),
+                a.getColor(R.styleable.CircularSeekBar_buttonPushedColor,
+                        PaintSet.DEFAULT_BUTTON_PUSHED_COLOR),
+                a.getColor(R.styleable.CircularSeekBar_textColor, PaintSet.DEFAULT_TEXT_COLOR));
+        a.recycle();
 
         /** Initialize the text paint **/
         mTextStyle.setSubpixelText(true);
         mTextStyle.setAntiAlias(true);
-        mTextStyle.setColor(Color.WHITE);
+        mTextStyle.setColor(mPaints.textColor);
         mTextStyle.setTextAlign(Paint.Align.CENTER);
-
-        /** Initialize the buttons **/
-        mButtonPushedColor.setColor(Color.argb(102, 115, 115, 115)); // light
-                                                                     // grey
-                                                                     // color
-        mButtonPushedColor.setAntiAlias(true);
     }
 
     /****************** INTERFACE METHODS ****************/
@@ -116,41 +103,23 @@ final class CircularSeekBar extends View {
         super.onDraw(canvas);
 
         /** A. Calculates dimension of the circular seek bar */
-        if (getWidth() != mWidth || getHeight() != mHeight) {
-            mWidth = getWidth();
-            mHeight = getHeight();
-            mCenterX = mWidth / 2;
-            mCenterY = mHeight / 2;
-
-            mDiameter = Math.min(mWidth, mHeight) - (2 * INSETS);
-            int thickness = mDiameter / 15;
-
-            int left = (mWidth - mDiameter) / 2;
-            int top = (mHeight - mDiameter) / 2;
-            int bottom = top + mDiameter;
-            int right = left + mDiameter;
-            mOuterCircle = new RectF(left, top, right, bottom);
-
-            int innerDiameter = mDiameter - thickness * 2;
-            mInnerCircle = new RectF(left + thickness, top + thickness, left + thickness
-                    + innerDiameter, top + thickness + innerDiameter);
-
-            int offset = thickness * 2;
-            int buttonDiameter = mDiameter - offset * 2;
-            mButtonCircle = new RectF(left + offset, top + offset, left + offset + buttonDiameter,
-                    top + offset + buttonDiameter);
-
-            mTextStyle.setTextSize(mDiameter * 0.18f);
+        if (mGeometry == null || getWidth() != mGeometry.width
+                || getHeight() != mGeometry.height) {
+            mGeometry = new SeekBarGeometry(getWidth(), getHeight(), mStartAngle,
+                    mStepThumbTickness);
+            mTextStyle.setTextSize(mGeometry.diameter * 0.18f);
         }
 
-        /** B. Calls the helper method to draw the circular seek bar **/
-        drawCircularSeekBar(canvas);
+        /** B. Calls the renderer to draw the circular seek bar, text and buttons **/
+        int sweepDegrees = getSweepAngleForStep(mSteps.getSelectedStep()) - 1;
+        mRenderer.draw(canvas, mGeometry, mPaints, mTextStyle, sweepDegrees, mIsIncreasePushed,
+                mIsDecreasePushed, formatValue(getSelectedValue()));
+    }
 
-        /**
-         * C. Calls the helper method to draw the text and buttons of the seek
-         * bar
-         **/
-        drawTextAndButtons(canvas);
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mRenderer.release();
     }
 
     /**
@@ -161,26 +130,31 @@ final class CircularSeekBar extends View {
     public boolean onTouchEvent(MotionEvent event) {
         Log.d(TAG, "onTouchEvent() called");
 
-        if (mOuterCircle == null) {
+        if (mGeometry == null) {
             return true; // ignore all events until the canvas is drawn
         }
 
+        int centerX = mGeometry.centerX;
+        int centerY = mGeometry.centerY;
+        int diameter = mGeometry.diameter;
+
         int touchX = (int) event.getX();
         int touchY = (int) event.getY();
 
         mIsIncreasePushed = false;
         mIsDecreasePushed = false;
 
-        int distanceFromCenterX = mCenterX - touchX;
-        int distanceFromCenterY = mCenterY - touchY;
+        int distanceFromCenterX = centerX - touchX;
+        int distanceFromCenterY = centerY - touchY;
         int distanceFromCenterSquared = distanceFromCenterX * distanceFromCenterX
                 + distanceFromCenterY * distanceFromCenterY;
-        float maxSlider = (mDiameter * 1.3f) / 2;
-        float maxUpDown = (mDiameter * 0.8f) / 2;
+        float maxSlider = (diameter * 1.3f) / 2;
+        float maxUpDown = (diameter * 0.8f) / 2;
 
         // handle increment/decrement button events
         if (distanceFromCenterSquared < (maxUpDown * maxUpDown)) {
-            boolean isIncrease = touchX > mCenterX;
+            boolean isIncrease = touchX > centerX;
+            mSteps.endDrag();
 
             if (event.getAction() == MotionEvent.ACTION_DOWN
                     || event.getAction() == MotionEvent.ACTION_MOVE) {
@@ -200,12 +174,12 @@ final class CircularSeekBar extends View {
         } else if (distanceFromCenterSquared < (maxSlider * maxSlider)) {
             int angle = pointToAngle(touchX, touchY);
             int sweepAngle = convertToSweepAngle(angle);
-            int step = getStepForSweepAngle(sweepAngle);
-            setSelectedStep(step);
+            setSelectedStepForSweepAngle(sweepAngle, event.getAction(), event.getEventTime());
 
             return true;
 
         } else {
+            mSteps.endDrag();
             return false;
         }
     }
@@ -230,11 +204,49 @@ final class CircularSeekBar extends View {
         setMeasuredDimension(width, height);
     }
 
+    /**
+     * Saves the selected step together with a fingerprint of the valueArray,
+     * so the selection can be restored without searching for the value again.
+     * The round trips are not saved, since the step mapping gives the round
+     * trip of each step.
+     */
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        Log.d(TAG, "onSaveInstanceState() called");
+
+        SavedState state = new SavedState(super.onSaveInstanceState());
+        state.selectedStep = mSteps.getSelectedStep();
+        state.valueCount = mValueArray.length;
+        state.valueFingerprint = fingerprint(mValueArray);
+        return state;
+    }
+
+    /**
+     * Restores the selected step and its round trip if the saved fingerprint
+     * matches the current valueArray. Otherwise the state is kept until a
+     * matching valueArray is set.
+     */
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        Log.d(TAG, "onRestoreInstanceState() called");
+
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+
+        if (!restoreState(savedState))
+            mPendingState = savedState;
+    }
+
     /**************** COLOR METHODS ****************/
 
     /** Sets the color of the remaining/empty circle in the middle **/
     public void setEmptyCircleColor(int color) {
-        mEmptyCircleColor.setColor(color);
+        setPaints(mPaints.withEmptyCircleColor(color));
     }
 
     /**
@@ -242,124 +254,93 @@ final class CircularSeekBar extends View {
      * to selected step
      **/
     public void setSelectedCircleColor(int color) {
-        mSelectedCircleColor.setColor(color);
+        setPaints(mPaints.withSelectedCircleColor(color));
     }
 
     /** Sets the color of the seek bar thumb **/
     public void setSeekBarThumsColor(int color) {
-        mThumbColor.setColor(color);
+        setPaints(mPaints.withThumbColor(color));
     }
 
     /** Sets the color of the buttons in the middle when they are pushed **/
     public void setButtonPushedColor(int color) {
-        mButtonPushedColor.setColor(color);
+        setPaints(mPaints.withButtonPushedColor(color));
     }
 
-    /**************** DRAWING HELPER METHODS ****************/
-
-    /**
-     * Draw a circle and an arc of the selected step, from start thru end.
-     */
-    private void drawCircularSeekBar(Canvas canvas) {
-        int sweepDegrees = getSweepAngleForStep(mSelectedStep) - 1;
-        int startAngle = mStartAngle;
-
-        // the colored "filled" part of the circle
-        drawArc(canvas, startAngle, sweepDegrees, mSelectedCircleColor);
-        Log.d(TAG, "drawCircularSeekBar() selected part startAngle: " + mStartAngle
-                + " sweepDegrees: " + sweepDegrees);
+    /** Sets the color of the text in the middle of the circle **/
+    public void setTextColor(int color) {
+        setPaints(mPaints.withTextColor(color));
+    }
 
-        // the white selected part of the circle
-        startAngle += sweepDegrees;
-        drawArc(canvas, startAngle, mStepThumbTickness, mThumbColor);
-        Log.d(TAG, "drawCircularSeekBar() thumb startAngle:" + (mStartAngle + sweepDegrees)
-                + " sweepDegrees: " + mStepThumbTickness);
+    private void setPaints(PaintSet paints) {
+        if (paints == mPaints)
+            return;
 
-        // the grey empty part of the circle
-        startAngle += mStepThumbTickness;
-        drawArc(canvas, startAngle, 360 - sweepDegrees - mStepThumbTickness, mEmptyCircleColor);
-        Log.d(TAG, "drawCircularSeekBar() empty part startAngle: "
-                + (mStartAngle + sweepDegrees + mStepThumbTickness) + " sweepDegrees: "
-                + (360 - sweepDegrees - mStepThumbTickness));
+        mPaints = paints;
+        mTextStyle.setColor(paints.textColor);
+        postInvalidate();
     }
 
-    private String formatValue(double value) {
-        return (mFormatter != null) ? mFormatter.format(value) : String.valueOf(value);
-    }
+    /**************** DRAWING HELPER METHODS ****************/
 
     /**
-     * Write labels in the middle of the circle
+     * Sets the renderer drawing the circle, text and buttons. Default is
+     * drawing everything directly on the canvas in every frame.
      */
-    private void drawTextAndButtons(Canvas canvas) {
-        Log.d(TAG, "drawClockTextAndButtons() called");
-
-        // up/down button backgrounds
-        if (mIsIncreasePushed) {
-            canvas.drawArc(mButtonCircle, 270, 180, true, mButtonPushedColor);
-        }
-        if (mIsDecreasePushed) {
-            canvas.drawArc(mButtonCircle, 90, 180, true, mButtonPushedColor);
-        }
-
-        // Writing the text in the middle
-        String formattedValue = formatValue(mValueArray[mSelectedStep]);
-        StaticLayout sl = new StaticLayout(formattedValue, mTextStyle, 280,
-                Layout.Alignment.ALIGN_NORMAL, 1.f, 0, true);
-
-        canvas.save();
-        canvas.translate(mCenterX, mCenterY - (mDiameter * 0.30f));
-        sl.draw(canvas);
-        canvas.restore();
-
-        // up/down buttons
-        Paint downPaint = mIsDecreasePushed ? mThumbColor : mEmptyCircleColor;
-        canvas.drawRect(mCenterX - mDiameter * 0.32f, mCenterY - mDiameter * 0.01f, mCenterX
-                - mDiameter * 0.22f, mCenterY + mDiameter * 0.01f, downPaint);
+    public void setRenderer(SeekBarRenderer renderer) {
+        if (renderer == null || renderer == mRenderer)
+            return;
 
-        Paint upPaint = mIsIncreasePushed ? mThumbColor : mEmptyCircleColor;
-        canvas.drawRect(mCenterX + mDiameter * 0.22f, mCenterY - mDiameter * 0.01f, mCenterX
-                + mDiameter * 0.32f, mCenterY + mDiameter * 0.01f, upPaint);
-        canvas.drawRect(mCenterX + mDiameter * 0.26f, mCenterY - mDiameter * 0.05f, mCenterX
-                + mDiameter * 0.28f, mCenterY + mDiameter * 0.05f, upPaint);
+        mRenderer.release();
+        mRenderer = renderer;
+        postInvalidate();
     }
 
-    /** Generic method for drawing arcs **/
-    private void drawArc(Canvas canvas, int startAngle, int sweepDegrees, Paint paint) {
-        Log.d(TAG, "drawArc() called");
-
-        if (sweepDegrees <= 0)
-            return;
-
-        mPath.reset();
-        mPath.arcTo(mOuterCircle, startAngle, sweepDegrees);
-        mPath.arcTo(mInnerCircle, startAngle + sweepDegrees, -sweepDegrees);
-        mPath.close();
-        canvas.drawPath(mPath, paint);
+    private String formatValue(double value) {
+        return (mFormatter != null) ? mFormatter.format(value) : String.valueOf(value);
     }
 
     /******************* GETTERS AND SETTES *************/
 
     /**
      * Returns sweep angle for given step. Example: step 12 returns sweep angle
-     * 120
+     * 120 with the default linear mapping of 10 degrees per step
      */
     public int getSweepAngleForStep(int step) {
-        step = step % mTotalSteps; // in case the current step belong to other
-                                   // round trips
-        return step * mAngleIncrement;
+        return mSteps.getSweepAngleForStep(step);
     }
 
     /**
-     * Returns step for given sweep angle. Example: sweep angle 120 returns step
-     * 12
+     * Returns the step closest to the given sweep angle in the current round
+     * trip. Example: sweep angle 120 returns step 12 in the first round trip
+     * with the default linear mapping of 10 degrees per step
      */
     public int getStepForSweepAngle(int sweepAngle) {
-        return sweepAngle / mAngleIncrement;
+        return mSteps.getStepForSweepAngle(sweepAngle);
+    }
+
+    /**
+     * Sets the mapping between steps and angles in the circle and keeps the
+     * selected step. Default is a linear mapping of 10 degrees per step.
+     */
+    public void setStepMapping(StepMapping stepMapping) {
+        if (mSteps.setStepMapping(stepMapping, mValueArray))
+            postInvalidate();
+    }
+
+    /**
+     * Sets the gain applied to the angle change when dragging the thumb,
+     * depending on the speed of the drag. With a gain a touch does not move
+     * the thumb to the touched angle, only dragging moves it. Default is null,
+     * selecting the step under the touch.
+     */
+    public void setVelocityGain(StepMapping.VelocityGain velocityGain) {
+        mSteps.setVelocityGain(velocityGain);
     }
 
     /** Returns the round trips in the circle seek bar **/
     public int getRoundTrips() {
-        return this.mRoundTrips;
+        return mSteps.getRoundTrips();
     }
 
     /**
@@ -367,66 +348,49 @@ final class CircularSeekBar extends View {
      * step selection
      **/
     public void setValueArray(double[] values) {
-        this.mValueArray = values;
-        this.mSelectedStep = 0;
-        this.mRoundTrips = 0;
+        this.mValueArray = (values != null) ? values : new double[0];
+        mSteps.setValues(mValueArray);
+
+        if (mPendingState != null && restoreState(mPendingState))
+            mPendingState = null;
+
         postInvalidate();
     }
 
     /**
-     * Sets the selected step in the circle according to the current round trip.
+     * Sets the selected step in the circle and the round trip it belongs to.
      * Must be positive value and less then valueArray.length
      */
     public void setSelectedStep(int step) {
-        if (step < 0) // ignore negative steps
-            step = 0;
-
-        if (step > mTotalSteps) // the step is set from the code
-        {
-            mRoundTrips = (step / mTotalSteps); // set round trips
-            mSelectedStep = step; // set selected step
-            Log.d(TAG, "Setting selected step to: " + mSelectedStep + " and round trips is now: "
-                    + mRoundTrips);
-        } else // the step is set from seek bar
-        {
-            step += (mRoundTrips * mTotalSteps);
-
-            if (mSelectedStep == step || step > mValueArray.length) // do
-                                                                    // nothing
-                                                                    // if the
-                                                                    // step is
-                                                                    // the same
-                                                                    // as the
-                                                                    // current
-                                                                    // selected
-                                                                    // step or
-                                                                    // greater
-                                                                    // then
-                                                                    // array
-                                                                    // lenght
-            {
-                step = 0;
-                return;
-            }
-
-            Log.d(TAG, "Selected step: " + mSelectedStep + ", new step: " + step
-                    + ", total steps: " + mTotalSteps + ", round trips: " + mRoundTrips
-                    + ", modulus: " + (mSelectedStep % mTotalSteps));
+        if (mSteps.setSelectedStep(step)) {
+            Log.d(TAG, "Setting selected step to: " + mSteps.getSelectedStep()
+                    + " and round trips is now: " + mSteps.getRoundTrips());
+            postInvalidate();
+        }
+    }
 
-            if (mSelectedStep - step == mTotalSteps - 1) // add one round trip
-                mRoundTrips++;
-            else if (mSelectedStep - step == -(mTotalSteps - 1) && mRoundTrips != 0) // reduce
-                                                                                     // one
-                                                                                     // round
-                                                                                     // trip
-                mRoundTrips--;
+    /**
+     * Sets the selected step to the step closest to the given sweep angle.
+     * Moving past the start angle from the end of the circle adds one round
+     * trip, and moving back from the beginning of the circle reduces one. With
+     * a velocity gain the angle change of the drag is used instead.
+     */
+    private void setSelectedStepForSweepAngle(int sweepAngle, int action, long eventTime) {
+        boolean isChanged;
+        if (action == MotionEvent.ACTION_DOWN)
+            isChanged = mSteps.startDrag(sweepAngle, eventTime);
+        else
+            isChanged = mSteps.dragTo(sweepAngle, eventTime);
 
-            this.mSelectedStep = step;
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL)
+            mSteps.endDrag();
 
-            Log.d(TAG, "Setting selected step to: " + mSelectedStep + " and round trips is now: "
-                    + mRoundTrips);
+        if (isChanged) {
+            Log.d(TAG, "Sweep angle: " + sweepAngle + " selected step: "
+                    + mSteps.getSelectedStep() + " and round trips is now: "
+                    + mSteps.getRoundTrips());
+            postInvalidate();
         }
-        postInvalidate();
     }
 
     /**
@@ -451,7 +415,7 @@ final class CircularSeekBar extends View {
      **/
     public double getSelectedValue() {
         if (mValueArray != null && mValueArray.length > 0)
-            return mValueArray[mSelectedStep];
+            return mValueArray[mSteps.getSelectedStep()];
         else
             return 0.00;
     }
@@ -478,7 +442,7 @@ final class CircularSeekBar extends View {
 
     /** Returns the selected step in the seek bar **/
     public int getSelectedStep() {
-        return mSelectedStep;
+        return mSteps.getSelectedStep();
     }
 
     /**
@@ -506,21 +470,12 @@ final class CircularSeekBar extends View {
     /**
      * Increases selected step with given increment.
      * 
-     * @param increment positive value less then valueArray.length
+     * @param increment positive value. Will not increase to step above the
+     *            last value.
      **/
     public void increaseStep(int increment) {
-        if (increment < 0)
-            return;
-
-        int step = mSelectedStep + increment;
-
-        if (step >= mValueArray.length)
-            step = mValueArray.length - 1;
-
-        mRoundTrips = (step / mTotalSteps);
-        mSelectedStep = step;
-
-        postInvalidate();
+        if (mSteps.increaseStep(increment))
+            postInvalidate();
     }
 
     /**
@@ -529,15 +484,43 @@ final class CircularSeekBar extends View {
      * @param decrement positive value. Will not decrease to step below zero.
      **/
     public void decreaseStep(int decrement) {
-        int step = mSelectedStep - decrement;
+        if (mSteps.decreaseStep(decrement))
+            postInvalidate();
+    }
 
-        if (step < 0)
-            step = 0;
+    /**
+     * Applies the saved step if the state was saved for the same valueArray.
+     * The round trips are derived from the current step mapping.
+     * 
+     * @return true if the state was applied
+     */
+    private boolean restoreState(SavedState state) {
+        if (state.valueCount != mValueArray.length
+                || state.valueFingerprint != fingerprint(mValueArray)
+                || !mSteps.restore(state.selectedStep))
+            return false;
 
-        mRoundTrips = (step / mTotalSteps);
-        mSelectedStep = step;
+        Log.d(TAG, "Restored selected step: " + mSteps.getSelectedStep()
+                + " and round trips: " + mSteps.getRoundTrips());
 
         postInvalidate();
+        return true;
+    }
+
+    /**
+     * Returns a cheap fingerprint of the valueArray based on its length and
+     * the first, middle and last value. The array itself is never stored in
+     * the saved state.
+     */
+    private static long fingerprint(double[] values) {
+        if (values == null || values.length == 0)
+            return 0;
+
+        long hash = values.length;
+        hash = 31 * hash + Double.doubleToLongBits(values[0]);
+        hash = 31 * hash + Double.doubleToLongBits(values[values.length / 2]);
+        hash = 31 * hash + Double.doubleToLongBits(values[values.length - 1]);
+        return hash;
     }
 
     /****************** METHODS FOR GETTING SELECTED ANGLE ***********/
@@ -548,8 +531,7 @@ final class CircularSeekBar extends View {
      */
     public int convertToSweepAngle(int angle) {
         int sweepAngle = 360 + angle - mStartAngle;
-        sweepAngle = roundToNearest(sweepAngle);
-        if (sweepAngle > 360) {
+        if (sweepAngle >= 360) {
             sweepAngle = sweepAngle - 360;
         }
 
@@ -563,6 +545,8 @@ final class CircularSeekBar extends View {
      * starts at 90 degrees and 180 degrees is at 270 degrees.
      */
     private int pointToAngle(int x, int y) {
+        int centerX = mGeometry.centerX;
+        int centerY = mGeometry.centerY;
 
         /*
          * Get the angle from a triangle by dividing opposite by adjacent and
@@ -571,31 +555,31 @@ final class CircularSeekBar extends View {
          * adj
          */
 
-        if (x >= mCenterX && y < mCenterY) // [0..90]
+        if (x >= centerX && y < centerY) // [0..90]
         {
-            double opp = x - mCenterX;
-            double adj = mCenterY - y;
+            double opp = x - centerX;
+            double adj = centerY - y;
             Log.d(TAG, "pointToAngle(): [0..90] called. opp: " + opp + ", adj: " + adj + " = "
                     + (270 + (int) Math.toDegrees(Math.atan(opp / adj))));
             return 270 + (int) Math.toDegrees(Math.atan(opp / adj));
-        } else if (x > mCenterX && y >= mCenterY) // [90..180]
+        } else if (x > centerX && y >= centerY) // [90..180]
         {
-            double opp = y - mCenterY;
-            double adj = x - mCenterX;
+            double opp = y - centerY;
+            double adj = x - centerX;
             Log.d(TAG, "pointToAngle() [90..180] called. opp: " + opp + ", adj: " + adj + " = "
                     + (int) Math.toDegrees(Math.atan(opp / adj)));
             return (int) Math.toDegrees(Math.atan(opp / adj));
-        } else if (x <= mCenterX && y > mCenterY) // [180..270]
+        } else if (x <= centerX && y > centerY) // [180..270]
         {
-            double opp = mCenterX - x;
-            double adj = y - mCenterY;
+            double opp = centerX - x;
+            double adj = y - centerY;
             Log.d(TAG, "pointToAngle() // [180..270] called. opp: " + opp + ", adj: " + adj + " = "
                     + (90 + (int) Math.toDegrees(Math.atan(opp / adj))));
             return 90 + (int) Math.toDegrees(Math.atan(opp / adj));
-        } else if (x < mCenterX && y <= mCenterY) // [270..359]
+        } else if (x < centerX && y <= centerY) // [270..359]
         {
-            double opp = mCenterY - y;
-            double adj = mCenterX - x;
+            double opp = centerY - y;
+            double adj = centerX - x;
             Log.d(TAG, "pointToAngle() // [270..360] called. opp: " + opp + ", adj: " + adj + " = "
                     + (180 + (int) Math.toDegrees(Math.atan(opp / adj))));
             return 180 + (int) Math.toDegrees(Math.atan(opp / adj));
@@ -604,17 +588,6 @@ final class CircularSeekBar extends View {
         throw new IllegalArgumentException();
     }
 
-    /**
-     * Rounds the angle to the nearest 5 degrees, which equals 1 step on a
-     * circle seek bar. Not strictly necessary, but it discourages fat-fingered
-     * users from being frustrated when trying to select a fine-grained period.
-     */
-    private int roundToNearest(int angle) {
-        NumberPicker.Formatter f;
-
-        return ((angle + 5) / 10) * 10;
-    }
-
     /**
      * Interface used to format current value into a string for presentation.
      */
@@ -627,4 +600,44 @@ final class CircularSeekBar extends View {
          */
         public String format(double value);
     }
+
+    /**
+     * State of the seek bar kept across configuration changes, for instance
+     * when changing the orientation.
+     */
+    static class SavedState extends BaseSavedState {
+        int selectedStep;
+        int valueCount;
+        long valueFingerprint;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            selectedStep = in.readInt();
+            valueCount = in.readInt();
+            valueFingerprint = in.readLong();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(selectedStep);
+            out.writeInt(valueCount);
+            out.writeLong(valueFingerprint);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR =
+                new Parcelable.Creator<SavedState>() {
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
 }
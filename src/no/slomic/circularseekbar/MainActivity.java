@@ -7,7 +7,6 @@
 package no.slomic.circularseekbar;
 
 import android.app.Activity;
-import android.graphics.Color;
 import android.os.Bundle;
 import android.view.View;
 
@@ -15,31 +14,31 @@ public class MainActivity extends Activity {
     /** the main UI control */
     private CircularSeekBar mCircularSeekBar;
     private double[] mValueArray = new double[3901];
-    private String ARGS_VALUE = "value";
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         View dialogView = getLayoutInflater().inflate(R.layout.main, null);
         mCircularSeekBar = (CircularSeekBar) dialogView.findViewById(R.id.circularSeekBar);
-        
-        // Setting the colors of the circle
-        mCircularSeekBar.setEmptyCircleColor(Color.GRAY);
-        mCircularSeekBar.setSelectedCircleColor(Color.WHITE);
-        mCircularSeekBar.setSeekBarThumsColor(Color.BLACK);
-        mCircularSeekBar.setButtonPushedColor(Color.LTGRAY);
+
+        // The colors of the circle are set in the layout
 
         // Setting the values that seek bar will iterate through
         generateValueArray();
         mCircularSeekBar.setValueArray(mValueArray);
+
+        // Giving the 0.01 steps below 10 one degree each and the 0.1 steps
+        // above half a degree, so 0.00 - 300.0 fits in 7 round trips instead
+        // of 108. Half a degree is finer than a touch can select, so a slow
+        // drag moves the thumb at half the speed of the finger, while a fast
+        // drag moves it up to four times faster to cover the range quickly
+        mCircularSeekBar.setStepMapping(new StepMapping.Piecewise(new double[] { 10 },
+                new float[] { 1f, 0.5f }));
+        mCircularSeekBar.setVelocityGain(new StepMapping.LinearVelocityGain(0.5f, 4f, 360f));
         
-        // Setting the start value
-        if (savedInstanceState != null) // restoring previous state
-        {
-            double value = savedInstanceState.getDouble(ARGS_VALUE);
-            mCircularSeekBar.setSelectedStepForValue(value);
-        }
-        else // setting default value
+        // Setting the start value. The previous state, for instance after
+        // changing the orientation, is restored by the seek bar itself
+        if (savedInstanceState == null)
             mCircularSeekBar.setSelectedStepForValue(75.5);
 
         // Formatting the value into a string representation
@@ -61,16 +60,6 @@ public class MainActivity extends Activity {
         setContentView(dialogView);
     }
 
-    /** Keep the selected value in the seek bar in case of restoring the activity
-     *  for instance by changing the orientation **/
-    @Override
-    public void onSaveInstanceState(Bundle outState)
-    {
-        super.onSaveInstanceState(outState);
-        double selectedValue = mCircularSeekBar.getSelectedValue();
-        outState.putDouble(ARGS_VALUE, selectedValue);
-    }
-
     /** Generates the values in the valueArray **/
     private void generateValueArray() {
         int arrayIndex = 0;
@@ -0,0 +1,170 @@
+/**
+ * Author: Ismar Slomic (ismar@slomic.no)
+ *
+ *
+ */
+
+package no.slomic.circularseekbar;
+
+import java.util.HashMap;
+
+import android.graphics.Color;
+import android.graphics.Paint;
+
+/**
+ * Paints used to draw the circle and buttons of the circular seek bar. Paint
+ * sets for the colors parsed from XML attributes are interned, so seek bars
+ * with the same theme share one set. Colors set from the code reuse an
+ * interned set if there is one, but are never interned themselves, so
+ * animating a color does not fill the registry.
+ * <p>
+ * The paints are shared between seek bars, so renderers and views must never
+ * change them; a new set is obtained instead when a color changes. The text
+ * paint depends on the size of each seek bar and is owned by the seek bar,
+ * only its color is kept here.
+ */
+final class PaintSet {
+    /** Default colors **/
+    static final int DEFAULT_EMPTY_CIRCLE_COLOR = Color.rgb(115, 115, 115); // grey
+    static final int DEFAULT_SELECTED_CIRCLE_COLOR = Color.rgb(255, 0, 165); // pink
+    static final int DEFAULT_THUMB_COLOR = Color.WHITE;
+    static final int DEFAULT_BUTTON_PUSHED_COLOR = Color.argb(102, 115, 115, 115); // light
+                                                                                   // grey
+    static final int DEFAULT_TEXT_COLOR = Color.WHITE;
+
+    /** Paint sets of XML themes by colors **/
+    private static final HashMap<Key, PaintSet> sPaintSets = new HashMap<Key, PaintSet>();
+
+    final int emptyCircleColor;
+    final int selectedCircleColor;
+    final int thumbColor;
+    final int buttonPushedColor;
+    final int textColor;
+
+    /** Circle colors **/
+    final Paint emptyCirclePaint;
+    final Paint selectedCirclePaint;
+    final Paint thumbPaint;
+
+    /** Color of the buttons in the middle when they are pushed **/
+    final Paint buttonPushedPaint;
+
+    private PaintSet(Key key) {
+        emptyCircleColor = key.emptyCircleColor;
+        selectedCircleColor = key.selectedCircleColor;
+        thumbColor = key.thumbColor;
+        buttonPushedColor = key.buttonPushedColor;
+        textColor = key.textColor;
+
+        emptyCirclePaint = createPaint(emptyCircleColor);
+        selectedCirclePaint = createPaint(selectedCircleColor);
+        thumbPaint = createPaint(thumbColor);
+        buttonPushedPaint = createPaint(buttonPushedColor);
+    }
+
+    private static Paint createPaint(int color) {
+        Paint paint = new Paint();
+        paint.setColor(color);
+        paint.setAntiAlias(true);
+        return paint;
+    }
+
+    /**
+     * Returns the shared paint set for the given colors of an XML theme,
+     * interning it if needed
+     **/
+    static PaintSet obtain(int emptyCircleColor, int selectedCircleColor, int thumbColor,
+            int buttonPushedColor, int textColor) {
+        return obtain(new Key(emptyCircleColor, selectedCircleColor, thumbColor,
+                buttonPushedColor, textColor), true);
+    }
+
+    private static synchronized PaintSet obtain(Key key, boolean intern) {
+        PaintSet paintSet = sPaintSets.get(key);
+        if (paintSet == null) {
+            paintSet = new PaintSet(key);
+            if (intern)
+                sPaintSets.put(key, paintSet);
+        }
+
+        return paintSet;
+    }
+
+    /**
+     * Returns a paint set with the given colors for a color set from the code.
+     * Reuses this set if the colors are the same, and otherwise an interned
+     * set if there is one, without interning a new set.
+     */
+    private PaintSet with(int emptyCircleColor, int selectedCircleColor, int thumbColor,
+            int buttonPushedColor, int textColor) {
+        if (emptyCircleColor == this.emptyCircleColor
+                && selectedCircleColor == this.selectedCircleColor
+                && thumbColor == this.thumbColor && buttonPushedColor == this.buttonPushedColor
+                && textColor == this.textColor)
+            return this;
+
+        return obtain(new Key(emptyCircleColor, selectedCircleColor, thumbColor,
+                buttonPushedColor, textColor), false);
+    }
+
+    PaintSet withEmptyCircleColor(int color) {
+        return with(color, selectedCircleColor, thumbColor, buttonPushedColor, textColor);
+    }
+
+    PaintSet withSelectedCircleColor(int color) {
+        return with(emptyCircleColor, color, thumbColor, buttonPushedColor, textColor);
+    }
+
+    PaintSet withThumbColor(int color) {
+        return with(emptyCircleColor, selectedCircleColor, color, buttonPushedColor, textColor);
+    }
+
+    PaintSet withButtonPushedColor(int color) {
+        return with(emptyCircleColor, selectedCircleColor, thumbColor, color, textColor);
+    }
+
+    PaintSet withTextColor(int color) {
+        return with(emptyCircleColor, selectedCircleColor, thumbColor, buttonPushedColor, color);
+    }
+
+    /** Colors identifying a paint set **/
+    private static final class Key {
+        final int emptyCircleColor;
+        final int selectedCircleColor;
+        final int thumbColor;
+        final int buttonPushedColor;
+        final int textColor;
+
+        Key(int emptyCircleColor, int selectedCircleColor, int thumbColor,
+                int buttonPushedColor, int textColor) {
+            this.emptyCircleColor = emptyCircleColor;
+            this.selectedCircleColor = selectedCircleColor;
+            this.thumbColor = thumbColor;
+            this.buttonPushedColor = buttonPushedColor;
+            this.textColor = textColor;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+
+            Key other = (Key) o;
+            return emptyCircleColor == other.emptyCircleColor
+                    && selectedCircleColor == other.selectedCircleColor
+                    && thumbColor == other.thumbColor
+                    && buttonPushedColor == other.buttonPushedColor
+                    && textColor == other.textColor;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = emptyCircleColor;
+            hash = 31 * hash + selectedCircleColor;
+            hash = 31 * hash + thumbColor;
+            hash = 31 * hash + buttonPushedColor;
+            hash = 31 * hash + textColor;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Author: Ismar Slomic (ismar@slomic.no)
+ *
+ *
+ */
+
+package no.slomic.circularseekbar;
+
+import android.graphics.RectF;
+
+/**
+ * Dimensions and graphical shapes of the circle and buttons for a given size
+ * of the seek bar. A new geometry is created when the size changes, so
+ * renderers can compare it by identity to find out if their cached drawing is
+ * still valid.
+ */
+final class SeekBarGeometry {
+    private static final int INSETS = 6;
+
+    final int width;
+    final int height;
+    final int centerX;
+    final int centerY;
+    final int diameter;
+    final RectF outerCircle;
+    final RectF innerCircle;
+    final RectF buttonCircle;
+
+    /** Angles **/
+    final int startAngle; // 360 in path.arcTo
+    final int thumbThickness;
+
+    SeekBarGeometry(int width, int height, int startAngle, int thumbThickness) {
+        this.width = width;
+        this.height = height;
+        this.startAngle = startAngle;
+        this.thumbThickness = thumbThickness;
+
+        centerX = width / 2;
+        centerY = height / 2;
+
+        diameter = Math.min(width, height) - (2 * INSETS);
+        int thickness = diameter / 15;
+
+        int left = (width - diameter) / 2;
+        int top = (height - diameter) / 2;
+        int bottom = top + diameter;
+        int right = left + diameter;
+        outerCircle = new RectF(left, top, right, bottom);
+
+        int innerDiameter = diameter - thickness * 2;
+        innerCircle = new RectF(left + thickness, top + thickness, left + thickness
+                + innerDiameter, top + thickness + innerDiameter);
+
+        int offset = thickness * 2;
+        int buttonDiameter = diameter - offset * 2;
+        buttonCircle = new RectF(left + offset, top + offset, left + offset + buttonDiameter,
+                top + offset + buttonDiameter);
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * Author: Ismar Slomic (ismar@slomic.no)
+ *
+ *
+ */
+
+package no.slomic.circularseekbar;
+
+import android.graphics.Canvas;
+import android.text.TextPaint;
+
+/**
+ * Draws the circle, thumb, text and buttons of the circular seek bar. The
+ * geometry and paint set are replaced rather than changed, so a renderer may
+ * cache everything drawn from them until it gets a different instance. The
+ * paints are shared with other seek bars and must never be changed.
+ */
+interface SeekBarRenderer {
+    /**
+     * Draws the seek bar.
+     * 
+     * @param textPaint text style of the label, owned by the seek bar and
+     *            sized to it
+     * @param sweepDegrees angle of the selected part of the circle
+     * @param label formatted selected value shown in the middle of the circle
+     */
+    void draw(Canvas canvas, SeekBarGeometry geometry, PaintSet paints, TextPaint textPaint,
+            int sweepDegrees, boolean isIncreasePushed, boolean isDecreasePushed, String label);
+
+    /** Releases cached drawing, for instance when the seek bar is detached **/
+    void release();
+}
@@ -0,0 +1,235 @@
+/**
+ * Author: Ismar Slomic (ismar@slomic.no)
+ *
+ *
+ */
+
+package no.slomic.circularseekbar;
+
+/**
+ * Maps the steps of the circular seek bar to angles. The angle of a step is
+ * absolute and counted from the start angle, so an angle of 360 degrees or
+ * more means that the step belongs to a later round trip.
+ * <p>
+ * The angles are precomputed into a monotone lookup table each time the
+ * valueArray is set, so both step to angle and angle to step are answered
+ * without allocations, the latter with a binary search. A mapping instance
+ * should only be used by one seek bar at a time.
+ */
+public abstract class StepMapping {
+    /** Absolute angle of each step, never decreasing **/
+    private float[] mAngles = new float[0];
+
+    /**
+     * Returns the number of degrees between the previous step and the given
+     * step. Negative results are treated as zero to keep the table monotone.
+     *
+     * @param step index of the step, always greater than zero
+     * @param previousValue value of the previous step
+     * @param value value of the step
+     */
+    protected abstract float getAngleIncrement(int step, double previousValue, double value);
+
+    /** Precomputes the angle of every step for the given values **/
+    final void setValues(double[] values) {
+        int count = (values != null) ? values.length : 0;
+
+        if (mAngles.length != count)
+            mAngles = new float[count];
+
+        for (int step = 1; step < count; step++) {
+            float increment = getAngleIncrement(step, values[step - 1], values[step]);
+
+            // NaN is also rejected here
+            if (!(increment > 0))
+                increment = 0;
+
+            mAngles[step] = mAngles[step - 1] + increment;
+        }
+    }
+
+    /**
+     * Returns the absolute angle of the given step. Steps outside of the index
+     * range of the valueArray are moved to the nearest step.
+     */
+    public float getAngleForStep(int step) {
+        if (mAngles.length == 0 || step <= 0)
+            return 0;
+
+        if (step >= mAngles.length)
+            step = mAngles.length - 1;
+
+        return mAngles[step];
+    }
+
+    /**
+     * Returns the step with the absolute angle closest to the given angle. When
+     * the angle is exactly between two steps the later step is returned.
+     */
+    public int getStepForAngle(float angle) {
+        if (mAngles.length == 0)
+            return 0;
+
+        // find the first step with angle greater than or equal to the given
+        // angle, or the last step if there is none
+        int low = 0;
+        int high = mAngles.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (mAngles[middle] < angle)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+
+        if (low > 0 && angle - mAngles[low - 1] < mAngles[low] - angle)
+            return low - 1;
+
+        return low;
+    }
+
+    /** Returns the round trip in the circle the given step belongs to **/
+    public int getRoundTripForStep(int step) {
+        return (int) (getAngleForStep(step) / 360);
+    }
+
+    /**
+     * Gain applied to the angle change of a drag before the step is looked up
+     * in the mapping, depending on how fast the thumb is dragged. A gain below
+     * one gives finer control than the mapping when dragging slowly, and a
+     * gain above one covers more steps when dragging fast.
+     */
+    public interface VelocityGain {
+        /**
+         * Returns the factor the angle change of a drag is multiplied with.
+         * 
+         * @param degreesPerSecond positive speed of the drag
+         */
+        public float getGain(float degreesPerSecond);
+    }
+
+    /**
+     * Velocity gain going linearly from a slow gain when the thumb is held
+     * still to a fast gain at and above a given speed.
+     */
+    public static class LinearVelocityGain implements VelocityGain {
+        private final float mSlowGain;
+        private final float mFastGain;
+        private final float mFastDegreesPerSecond;
+
+        /**
+         * @param slowGain positive gain when dragging slowly
+         * @param fastGain positive gain when dragging at fastDegreesPerSecond
+         *            or faster
+         * @param fastDegreesPerSecond positive speed where fastGain is reached
+         */
+        public LinearVelocityGain(float slowGain, float fastGain, float fastDegreesPerSecond) {
+            if (!(slowGain > 0) || !(fastGain > 0))
+                throw new IllegalArgumentException("gains must be positive");
+            if (!(fastDegreesPerSecond > 0))
+                throw new IllegalArgumentException("fastDegreesPerSecond must be positive");
+
+            mSlowGain = slowGain;
+            mFastGain = fastGain;
+            mFastDegreesPerSecond = fastDegreesPerSecond;
+        }
+
+        public float getGain(float degreesPerSecond) {
+            float fraction = Math.min(1f, Math.max(0f, degreesPerSecond / mFastDegreesPerSecond));
+            return mSlowGain + (mFastGain - mSlowGain) * fraction;
+        }
+    }
+
+    /**
+     * Linear mapping where each step has the same angle. This is the default
+     * mapping of the seek bar.
+     */
+    public static class Linear extends StepMapping {
+        private final float mDegreesPerStep;
+
+        /** @param degreesPerStep positive number of degrees for each step **/
+        public Linear(float degreesPerStep) {
+            if (!(degreesPerStep > 0))
+                throw new IllegalArgumentException("degreesPerStep must be positive");
+
+            mDegreesPerStep = degreesPerStep;
+        }
+
+        @Override
+        protected float getAngleIncrement(int step, double previousValue, double value) {
+            return mDegreesPerStep;
+        }
+    }
+
+    /**
+     * Logarithmic mapping where the angle is proportional to the logarithm of
+     * the value. Small values get large angles and large values small ones,
+     * so wide ranges fit in a few round trips without losing precision at the
+     * low end. Requires increasing values; values below zero are treated as
+     * zero.
+     */
+    public static class Logarithmic extends StepMapping {
+        private final float mDegreesPerDecade;
+        private final double mOffset;
+
+        /**
+         * @param degreesPerDecade positive number of degrees between a value
+         *            and ten times that value
+         * @param offset positive value added to each value before taking the
+         *            logarithm, so that zero can be mapped
+         */
+        public Logarithmic(float degreesPerDecade, double offset) {
+            if (!(degreesPerDecade > 0))
+                throw new IllegalArgumentException("degreesPerDecade must be positive");
+            if (!(offset > 0))
+                throw new IllegalArgumentException("offset must be positive");
+
+            mDegreesPerDecade = degreesPerDecade;
+            mOffset = offset;
+        }
+
+        @Override
+        protected float getAngleIncrement(int step, double previousValue, double value) {
+            return (float) (mDegreesPerDecade * (log(value) - log(previousValue)));
+        }
+
+        private double log(double value) {
+            return Math.log10(Math.max(value, 0) + mOffset);
+        }
+    }
+
+    /**
+     * Piecewise linear mapping where the number of degrees for each step
+     * depends on the value range the step belongs to.
+     */
+    public static class Piecewise extends StepMapping {
+        private final double[] mUpperValues;
+        private final float[] mDegreesPerStep;
+
+        /**
+         * @param upperValues increasing values where each range ends. A value
+         *            belongs to the first range it is less than.
+         * @param degreesPerStep number of degrees for each step in each range.
+         *            Must have one more element than upperValues, the last
+         *            one is used for values above all upperValues.
+         */
+        public Piecewise(double[] upperValues, float[] degreesPerStep) {
+            if (upperValues == null || degreesPerStep == null
+                    || degreesPerStep.length != upperValues.length + 1)
+                throw new IllegalArgumentException(
+                        "degreesPerStep must have one more element than upperValues");
+
+            mUpperValues = upperValues.clone();
+            mDegreesPerStep = degreesPerStep.clone();
+        }
+
+        @Override
+        protected float getAngleIncrement(int step, double previousValue, double value) {
+            int range = 0;
+            while (range < mUpperValues.length && value >= mUpperValues[range])
+                range++;
+
+            return mDegreesPerStep[range];
+        }
+    }
+}
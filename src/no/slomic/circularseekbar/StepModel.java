@@ -0,0 +1,232 @@
+/**
+ * Author: Ismar Slomic (ismar@slomic.no)
+ *
+ *
+ */
+
+package no.slomic.circularseekbar;
+
+/**
+ * Selected step and round trips of the circular seek bar. Kept free of
+ * Android classes so the step logic can run on a plain JVM.
+ * <p>
+ * The selected step is always in the index range of the valueArray (or zero
+ * when it is empty) and the round trips always match the angle of the
+ * selected step. None of the methods allocate.
+ */
+final class StepModel {
+    private int mSelectedStep = 0;
+    private int mRoundTrips = 0; // count of round trips in the circle
+    private int mStepCount = 0;
+    private StepMapping mStepMapping = new StepMapping.Linear(10);
+
+    /** Drag with velocity gain **/
+    private StepMapping.VelocityGain mVelocityGain;
+    private boolean mIsDragging;
+    private float mDragAngle; // absolute angle of the thumb during a drag
+    private int mLastSweepAngle;
+    private long mLastDragTime;
+
+    /** Sets the values to iterate through and selects the first step **/
+    void setValues(double[] values) {
+        mStepCount = (values != null) ? values.length : 0;
+        mStepMapping.setValues(values);
+        mSelectedStep = 0;
+        mRoundTrips = 0;
+    }
+
+    /**
+     * Sets the mapping between steps and angles and keeps the selected step.
+     *
+     * @return true if the mapping was changed
+     */
+    boolean setStepMapping(StepMapping stepMapping, double[] values) {
+        if (stepMapping == null || stepMapping == mStepMapping)
+            return false;
+
+        mStepMapping = stepMapping;
+        mStepMapping.setValues(values);
+        mRoundTrips = mStepMapping.getRoundTripForStep(mSelectedStep);
+        return true;
+    }
+
+    /**
+     * Sets the gain applied to the angle change of a drag, or null to select
+     * the step under the touch as without gain.
+     */
+    void setVelocityGain(StepMapping.VelocityGain velocityGain) {
+        mVelocityGain = velocityGain;
+        mIsDragging = false;
+    }
+
+    /**
+     * Restores a previously selected step and the round trip it belongs to
+     * with the current mapping.
+     *
+     * @return true if the step is in the index range of the values
+     */
+    boolean restore(int step) {
+        if (step < 0 || step >= mStepCount)
+            return false;
+
+        mSelectedStep = step;
+        mRoundTrips = mStepMapping.getRoundTripForStep(step);
+        return true;
+    }
+
+    /**
+     * Selects the given step, moved into the index range of the values, and
+     * the round trip it belongs to.
+     *
+     * @return true if the selected step was changed
+     */
+    boolean setSelectedStep(int step) {
+        if (step >= mStepCount) // stop at the last value
+            step = mStepCount - 1;
+
+        if (step < 0) // ignore negative steps
+            step = 0;
+
+        if (mSelectedStep == step)
+            return false;
+
+        mSelectedStep = step;
+        mRoundTrips = mStepMapping.getRoundTripForStep(step);
+        return true;
+    }
+
+    /**
+     * Selects the step closest to the given sweep angle. Moving past the start
+     * angle from the end of the circle adds one round trip, and moving back
+     * from the beginning of the circle reduces one.
+     *
+     * @param sweepAngle angle from the start angle, 0 - 359
+     * @return true if the selected step was changed
+     */
+    boolean setSelectedSweepAngle(int sweepAngle) {
+        int roundTrips = mRoundTrips;
+        int selectedSweepAngle = getSweepAngleForStep(mSelectedStep);
+
+        if (selectedSweepAngle > 270 && sweepAngle < 90) // add one round trip
+            roundTrips++;
+        else if (selectedSweepAngle < 90 && sweepAngle > 270 && roundTrips != 0)
+            roundTrips--; // reduce one round trip
+
+        return setSelectedStep(mStepMapping.getStepForAngle(roundTrips * 360 + sweepAngle));
+    }
+
+    /**
+     * Starts a drag at the given sweep angle. Without velocity gain the step
+     * under the touch is selected. With velocity gain the selection stays
+     * where it is, and only the following angle changes move it.
+     *
+     * @param timeMillis time of the touch, in milliseconds
+     * @return true if the selected step was changed
+     */
+    boolean startDrag(int sweepAngle, long timeMillis) {
+        mIsDragging = true;
+        mLastSweepAngle = sweepAngle;
+        mLastDragTime = timeMillis;
+        mDragAngle = mStepMapping.getAngleForStep(mSelectedStep);
+
+        if (mVelocityGain == null)
+            return setSelectedSweepAngle(sweepAngle);
+
+        return false;
+    }
+
+    /**
+     * Continues a drag to the given sweep angle, starting one if none is in
+     * progress. With velocity gain the angle change since the last touch,
+     * taking the shorter way around the circle, is multiplied with the gain
+     * for the speed of the drag before the step is looked up.
+     *
+     * @param timeMillis time of the touch, in milliseconds
+     * @return true if the selected step was changed
+     */
+    boolean dragTo(int sweepAngle, long timeMillis) {
+        if (!mIsDragging)
+            return startDrag(sweepAngle, timeMillis);
+
+        if (mVelocityGain == null)
+            return setSelectedSweepAngle(sweepAngle);
+
+        int change = sweepAngle - mLastSweepAngle;
+        if (change > 180)
+            change -= 360;
+        else if (change <= -180)
+            change += 360;
+
+        // the step may have been changed by the buttons during the drag
+        if (mStepMapping.getStepForAngle(mDragAngle) != mSelectedStep)
+            mDragAngle = mStepMapping.getAngleForStep(mSelectedStep);
+
+        long elapsed = Math.max(1, timeMillis - mLastDragTime);
+        float degreesPerSecond = Math.abs(change) * 1000f / elapsed;
+
+        mDragAngle += change * mVelocityGain.getGain(degreesPerSecond);
+        mDragAngle = Math.max(0, Math.min(mDragAngle,
+                mStepMapping.getAngleForStep(mStepCount - 1)));
+        mLastSweepAngle = sweepAngle;
+        mLastDragTime = timeMillis;
+
+        return setSelectedStep(mStepMapping.getStepForAngle(mDragAngle));
+    }
+
+    /** Ends the drag in progress, if any **/
+    void endDrag() {
+        mIsDragging = false;
+    }
+
+    /**
+     * Increases the selected step, stopping at the last value.
+     *
+     * @param increment positive value
+     * @return true if the selected step was changed
+     */
+    boolean increaseStep(int increment) {
+        if (increment <= 0)
+            return false;
+
+        // selected step is never above the last value, so only the sum can
+        // overflow
+        int step = mSelectedStep + increment;
+        return setSelectedStep(step < 0 ? Integer.MAX_VALUE : step);
+    }
+
+    /**
+     * Decreases the selected step, stopping at the first value.
+     *
+     * @param decrement positive value
+     * @return true if the selected step was changed
+     */
+    boolean decreaseStep(int decrement) {
+        if (decrement <= 0)
+            return false;
+
+        return setSelectedStep(mSelectedStep - decrement);
+    }
+
+    /** Returns sweep angle, 0 - 359, for given step **/
+    int getSweepAngleForStep(int step) {
+        // in case the step belong to other round trips
+        return (int) (mStepMapping.getAngleForStep(step) % 360);
+    }
+
+    /** Returns the step closest to the given sweep angle in the current round trip **/
+    int getStepForSweepAngle(int sweepAngle) {
+        return mStepMapping.getStepForAngle(mRoundTrips * 360 + sweepAngle);
+    }
+
+    int getSelectedStep() {
+        return mSelectedStep;
+    }
+
+    int getRoundTrips() {
+        return mRoundTrips;
+    }
+
+    int getStepCount() {
+        return mStepCount;
+    }
+}